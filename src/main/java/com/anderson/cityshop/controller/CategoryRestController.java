@@ -1,6 +1,7 @@
 package com.anderson.cityshop.controller;
 
 import com.anderson.cityshop.model.Category;
+import com.anderson.cityshop.model.CategoryDeletePolicy;
 import com.anderson.cityshop.response.CategoryResponseRest;
 import com.anderson.cityshop.service.interfaces.ICategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -70,12 +71,19 @@ public class CategoryRestController {
      * Deletes a category identified by its unique ID.
      *
      * @param id the unique identifier of the category to be deleted
+     * @param policy what to do with the products of the category: REJECT, REASSIGN or CASCADE
+     * @param targetId the category receiving the products when the policy is REASSIGN
      * @return a ResponseEntity containing the CategoryResponseRest object,
      *         which provides information about the success or failure of the deletion operation
+     *         and the ids of the affected products
      */
     @DeleteMapping("/categories/{id}")
-    public ResponseEntity<CategoryResponseRest> deleteById(@PathVariable Long id) {
-        return categoryService.deleteById(id);
+    public ResponseEntity<CategoryResponseRest> deleteById(
+            @PathVariable Long id,
+            @RequestParam(value = "policy", defaultValue = "REJECT") CategoryDeletePolicy policy,
+            @RequestParam(value = "targetId", required = false) Long targetId
+    ) {
+        return categoryService.deleteById(id, policy, targetId);
     }
 
 }
@@ -4,6 +4,9 @@ import com.anderson.cityshop.model.Product;
 import com.anderson.cityshop.response.ProductResponseRest;
 import com.anderson.cityshop.service.interfaces.IProductService;
 import com.anderson.cityshop.utils.InventoryUtils;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.engine.jdbc.BlobProxy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.TransactionSystemException;
@@ -11,21 +14,38 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Set;
 
 @CrossOrigin(origins = "*")
 @RestController
 @RequestMapping("/api")
 public class ProductRestController {
 
+    private static final Set<String> PICTURE_CONTENT_TYPES = Set.of("image/jpeg", "image/png", "image/gif");
+
     private final IProductService productService;
+    private final int pictureMaxWidth;
+    private final int pictureMaxHeight;
+    private final int pictureMaxHeaderBytes;
 
-    public ProductRestController(IProductService productService) {
+    public ProductRestController(
+            IProductService productService,
+            @Value("${cityshop.picture.max-width:4096}") int pictureMaxWidth,
+            @Value("${cityshop.picture.max-height:4096}") int pictureMaxHeight,
+            @Value("${cityshop.picture.max-header-bytes:262144}") int pictureMaxHeaderBytes
+    ) {
         this.productService = productService;
+        this.pictureMaxWidth = pictureMaxWidth;
+        this.pictureMaxHeight = pictureMaxHeight;
+        this.pictureMaxHeaderBytes = pictureMaxHeaderBytes;
     }
 
     /**
      * Saves a new product with the given details and associates it with a specified category.
-     * The product picture is compressed before being saved.
+     * The picture is validated from its header bytes, then hashed and compressed in a single
+     * streamed pass, so the upload is never copied onto the heap uncompressed.
      *
      * @param picture the picture file of the product to be saved
      * @param name the name of the product
@@ -44,14 +64,43 @@ public class ProductRestController {
     )
     {
         try {
+            ProductResponseRest response = new ProductResponseRest();
+
+            // Validate the content type and dimensions before reading the body
+            if (picture.getContentType() == null || !PICTURE_CONTENT_TYPES.contains(picture.getContentType())) {
+                response.setMetadata("Bad Error", "-1", "Unsupported picture type");
+                return new ResponseEntity<ProductResponseRest>(response, HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+            }
+
+            InventoryUtils.ImageHeader header;
+            try (InputStream stream = picture.getInputStream()) {
+                header = InventoryUtils.readImageHeader(stream, pictureMaxHeaderBytes);
+            }
+            if (header == null || !picture.getContentType().endsWith(header.format())) {
+                response.setMetadata("Bad Error", "-1", "Picture content does not match its type");
+                return new ResponseEntity<ProductResponseRest>(response, HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+            }
+            if (header.dimension().width > pictureMaxWidth || header.dimension().height > pictureMaxHeight) {
+                response.setMetadata("Bad Error", "-1", "Picture dimensions exceed the allowed size");
+                return new ResponseEntity<ProductResponseRest>(response, HttpStatus.BAD_REQUEST);
+            }
+
             Product product = new Product();
             product.setName(name);
             product.setQuantity(quantity);
             product.setPrice(price);
-            // Compression of the image
-            product.setPicture(InventoryUtils.compressZLib(picture.getBytes()));
+            // Hash and compression of the image in one pass, into a temp file streamed to the database
+            InventoryUtils.CompressedData compressed;
+            try (InputStream stream = picture.getInputStream()) {
+                compressed = InventoryUtils.compressZLib(stream);
+            }
+            try (compressed; InputStream pictureStream = Files.newInputStream(compressed.file())) {
+                product.setPicture(BlobProxy.generateProxy(pictureStream, compressed.length()));
+                product.setPictureHash(compressed.sha256());
+                product.setPictureType("image/" + header.format());
 
-            return productService.save(product, categoryID);
+                return productService.save(product, categoryID);
+            }
         } catch (IOException e) {
             // Handle IOException
             // Log the error and return a bad request response
@@ -77,4 +126,19 @@ public class ProductRestController {
         return productService.searchById(id);
     }
 
+    /**
+     * Streams the uncompressed picture of a product straight from the database to the client,
+     * with the content type detected on upload, without holding the whole image in memory.
+     *
+     * @param id the unique identifier of the product whose picture is requested
+     * @param response the servlet response the picture is written to
+     * @throws IOException if the picture cannot be read or written
+     */
+    @GetMapping("/products/{id}/picture")
+    public void searchPictureById(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        if (!productService.writePictureById(id, response)) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+        }
+    }
+
 }
\ No newline at end of file
@@ -1,7 +1,29 @@
 package com.anderson.cityshop.dao;
 
 import com.anderson.cityshop.model.Category;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Optional;
+
 public interface ICategoryDao extends CrudRepository<Category, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select c from Category c where c.id = ?1")
+    Optional<Category> findByIdForShare(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Category c where c.id = ?1")
+    Optional<Category> findByIdForUpdate(Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Category c set c.name = ?2, c.description = ?3 where c.id = ?1")
+    int updateById(Long id, String name, String description);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Category c where c.id = ?1")
+    int bulkDeleteById(Long id);
 }
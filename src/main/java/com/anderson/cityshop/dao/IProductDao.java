@@ -1,6 +1,7 @@
 package com.anderson.cityshop.dao;
 
 import com.anderson.cityshop.model.Product;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
@@ -10,4 +11,19 @@ public interface IProductDao extends CrudRepository<Product, Long> {
 
     @Query("select p from Product p where p.name like %?1%")
     List<Product> findByNameLike(String name);
+
+    @Query("select p.id from Product p where p.category.id = ?1")
+    List<Long> findIdsByCategoryId(Long categoryId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.category.id = ?2 where p.category.id = ?1")
+    int reassignCategory(Long categoryId, Long targetCategoryId);
+
+    @Query(value = "select count(lo_unlink(p.picture)) from product p where p.category_id = ?1 and p.picture is not null",
+            nativeQuery = true)
+    long unlinkPicturesByCategoryId(Long categoryId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Product p where p.category.id = ?1")
+    int deleteByCategoryId(Long categoryId);
 }
@@ -0,0 +1,13 @@
+package com.anderson.cityshop.model;
+
+/**
+ * Defines what happens to the products of a category when the category is deleted.
+ */
+public enum CategoryDeletePolicy {
+    /** The category is not deleted while it still has products. */
+    REJECT,
+    /** The products are moved to another category before deleting. */
+    REASSIGN,
+    /** The products are deleted together with the category. */
+    CASCADE
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 
 import java.io.Serializable;
+import java.sql.Blob;
 
 @Data
 @Entity
@@ -27,5 +28,13 @@ public class Product implements Serializable {
     @Basic(fetch = FetchType.LAZY)
     @Column(name = "picture")
     @JsonIgnore
-    private byte[] picture;
+    private Blob picture;
+
+    @Column(name = "picture_hash", length = 64)
+    @JsonIgnore
+    private String pictureHash;
+
+    @Column(name = "picture_type", length = 32)
+    @JsonIgnore
+    private String pictureType;
 }
@@ -1,6 +1,7 @@
 package com.anderson.cityshop.response;
 
 import com.anderson.cityshop.model.Category;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 import java.util.List;
@@ -8,4 +9,7 @@ import java.util.List;
 @Data
 public class CategoryResponse {
     private List<Category> category;
-}
\ No newline at end of file
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Long> affectedProductIds;
+}
@@ -1,7 +1,9 @@
 package com.anderson.cityshop.service;
 
 import com.anderson.cityshop.dao.ICategoryDao;
+import com.anderson.cityshop.dao.IProductDao;
 import com.anderson.cityshop.model.Category;
+import com.anderson.cityshop.model.CategoryDeletePolicy;
 import com.anderson.cityshop.response.CategoryResponseRest;
 import com.anderson.cityshop.service.interfaces.ICategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +11,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,9 +21,11 @@ import java.util.Optional;
 public class CategoryServiceImpl implements ICategoryService {
 
     private final ICategoryDao categoryDao;
+    private final IProductDao productDao;
 
-    public CategoryServiceImpl(ICategoryDao categoryDao) {
+    public CategoryServiceImpl(ICategoryDao categoryDao, IProductDao productDao) {
         this.categoryDao = categoryDao;
+        this.productDao = productDao;
     }
 
     /**
@@ -116,6 +121,7 @@ public class CategoryServiceImpl implements ICategoryService {
 
     /**
      * Updates an existing category based on the provided category object and ID.
+     * The change is applied with a single bulk update, without loading the entity first.
      *
      * @param category the category object containing the updated information
      * @param id the ID of the category to be updated
@@ -129,24 +135,13 @@ public class CategoryServiceImpl implements ICategoryService {
 
         try {
 
-            Optional<Category> categorySearch = categoryDao.findById(id);
-
-            if (categorySearch.isPresent()) {
-                // update doc
-                categorySearch.get().setName(category.getName());
-                categorySearch.get().setDescription(category.getDescription());
-
-                Category categoryToUpdate = categoryDao.save(categorySearch.get());
-
-                if (categoryToUpdate != null) {
-                    list.add(categoryToUpdate);
-                    response.getCategoryResponse().setCategory(list);
-                    response.setMetadata("Ok status", "00", "Category updated");
-                } else {
-                    response.setMetadata("Bad response", "-1", "Category not updated");
-                    return new ResponseEntity<CategoryResponseRest>(response, HttpStatus.BAD_REQUEST);
-                }
+            int updated = categoryDao.updateById(id, category.getName(), category.getDescription());
 
+            if (updated == 1) {
+                category.setId(id);
+                list.add(category);
+                response.getCategoryResponse().setCategory(list);
+                response.setMetadata("Ok status", "00", "Category updated");
             } else {
                 // send error to user
                 response.setMetadata("Bad response", "-1", "Category not found");
@@ -156,6 +151,7 @@ public class CategoryServiceImpl implements ICategoryService {
         } catch (Exception e) {
             response.setMetadata("Bad response", "-1", "There was an error updating the category");
             e.getStackTrace();
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return new ResponseEntity<CategoryResponseRest>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
@@ -163,24 +159,88 @@ public class CategoryServiceImpl implements ICategoryService {
     }
 
     /**
-     * Deletes a category by its identifier.
+     * Deletes a category by its identifier, applying the given policy to the products
+     * that belong to it. The category row is locked first, so no product can be added
+     * to it meanwhile, and every step runs as a set based statement whose row count is
+     * checked, without loading the products into the persistence context.
      *
      * @param id the identifier of the category to be deleted
+     * @param policy what to do with the products of the category
+     * @param targetId the category receiving the products when the policy is REASSIGN
      * @return a ResponseEntity containing the CategoryResponseRest object with
      *         metadata indicating success or failure of the deletion operation
+     *         and the ids of the affected products
      */
     @Override
-    public ResponseEntity<CategoryResponseRest> deleteById(Long id) {
+    @Transactional
+    public ResponseEntity<CategoryResponseRest> deleteById(Long id, CategoryDeletePolicy policy, Long targetId) {
         CategoryResponseRest response = new CategoryResponseRest();
+        boolean reassign = policy == CategoryDeletePolicy.REASSIGN;
+
+        if (reassign && (targetId == null || targetId.equals(id))) {
+            response.setMetadata("Bad response", "-1", "Target category not valid");
+            return new ResponseEntity<CategoryResponseRest>(response, HttpStatus.BAD_REQUEST);
+        }
 
         try {
 
-            categoryDao.deleteById(id);
+            // lock the categories involved in id order to avoid deadlocks between concurrent deletes
+            Optional<Category> target = Optional.empty();
+            if (reassign && targetId < id) {
+                target = categoryDao.findByIdForUpdate(targetId);
+            }
+            Optional<Category> category = categoryDao.findByIdForUpdate(id);
+            if (reassign && targetId > id) {
+                target = categoryDao.findByIdForUpdate(targetId);
+            }
+
+            if (category.isEmpty()) {
+                response.setMetadata("Bad response", "-1", "Category not found");
+                return new ResponseEntity<CategoryResponseRest>(response, HttpStatus.NOT_FOUND);
+            }
+            if (reassign && target.isEmpty()) {
+                response.setMetadata("Bad response", "-1", "Target category not valid");
+                return new ResponseEntity<CategoryResponseRest>(response, HttpStatus.BAD_REQUEST);
+            }
+
+            List<Long> productIds = productDao.findIdsByCategoryId(id);
+
+            int affected = 0;
+            if (!productIds.isEmpty()) {
+                switch (policy) {
+                    case REJECT:
+                        response.setMetadata("Bad response", "-1", "Category has products associated");
+                        return new ResponseEntity<CategoryResponseRest>(response, HttpStatus.CONFLICT);
+                    case REASSIGN:
+                        affected = productDao.reassignCategory(id, targetId);
+                        break;
+                    case CASCADE:
+                        // the pictures are large objects, a bulk delete of the rows does not release them
+                        productDao.unlinkPicturesByCategoryId(id);
+                        affected = productDao.deleteByCategoryId(id);
+                        break;
+                }
+            }
+
+            if (affected != productIds.size()) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                response.setMetadata("Bad response", "-1", "Category products changed during the deletion");
+                return new ResponseEntity<CategoryResponseRest>(response, HttpStatus.CONFLICT);
+            }
+
+            if (categoryDao.bulkDeleteById(id) != 1) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                response.setMetadata("Bad response", "-1", "Category not found");
+                return new ResponseEntity<CategoryResponseRest>(response, HttpStatus.NOT_FOUND);
+            }
+
+            response.getCategoryResponse().setAffectedProductIds(productIds);
             response.setMetadata("Ok status", "00", "Category deleted");
 
         } catch (Exception e) {
             response.setMetadata("Bad response", "-1", "There was an error deleting the category");
             e.getStackTrace();
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return new ResponseEntity<CategoryResponseRest>(response, HttpStatus.INTERNAL_SERVER_ERROR);
         }
 
@@ -7,11 +7,17 @@ import com.anderson.cityshop.model.Product;
 import com.anderson.cityshop.response.ProductResponseRest;
 import com.anderson.cityshop.service.interfaces.IProductService;
 import com.anderson.cityshop.utils.InventoryUtils;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Blob;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -35,8 +41,8 @@ public class ProductServiceImpl  implements IProductService {
         List<Product> list = new ArrayList<>();
 
         try {
-            // search category to set in the product object
-            Optional<Category> category = categoryDao.findById(CategoryId);
+            // search category to set in the product object, locked so it cannot be deleted meanwhile
+            Optional<Category> category = categoryDao.findByIdForShare(CategoryId);
             if(category.isPresent()) {
                 product.setCategory(category.get());
             } else {
@@ -76,9 +82,7 @@ public class ProductServiceImpl  implements IProductService {
             // search product by id
             Optional<Product> product = productDao.findById(id);
             if(product.isPresent()) {
-
-                byte[] decompressedImage = InventoryUtils.decompressZLib(product.get().getPicture());
-                product.get().setPicture(decompressedImage);
+                // the picture is served by writePictureById, it is not inflated here
                 list.add(product.get());
                 response.getProductResponse().setProducts(list);
                 response.setMetadata("Ok", "00", "Product found");
@@ -96,4 +100,34 @@ public class ProductServiceImpl  implements IProductService {
 
         return new ResponseEntity<ProductResponseRest>(response, HttpStatus.OK);
     }
+
+    /**
+     * Writes the uncompressed picture of a product to the given response with its stored
+     * content type, streaming it from the database through a fixed size buffer.
+     *
+     * @param id the unique identifier of the product
+     * @param response the response the picture is written to; nothing is written if the picture is missing
+     * @return false if the product or its picture does not exist, true otherwise
+     * @throws IOException if the picture cannot be read or written
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public boolean writePictureById(Long id, HttpServletResponse response) throws IOException {
+        Optional<Product> product = productDao.findById(id);
+        if (product.isEmpty() || product.get().getPicture() == null) {
+            return false;
+        }
+
+        // pictures saved before the type was stored are served as raw bytes
+        String pictureType = product.get().getPictureType();
+        response.setContentType(pictureType != null ? pictureType : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+        Blob picture = product.get().getPicture();
+        try (InputStream stream = picture.getBinaryStream()) {
+            InventoryUtils.decompressZLib(stream, response.getOutputStream());
+        } catch (SQLException e) {
+            throw new IOException("Error reading product picture", e);
+        }
+        return true;
+    }
 }
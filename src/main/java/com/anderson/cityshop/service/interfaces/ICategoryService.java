@@ -1,6 +1,7 @@
 package com.anderson.cityshop.service.interfaces;
 
 import com.anderson.cityshop.model.Category;
+import com.anderson.cityshop.model.CategoryDeletePolicy;
 import com.anderson.cityshop.response.CategoryResponseRest;
 import org.springframework.http.ResponseEntity;
 
@@ -9,5 +10,5 @@ public interface ICategoryService {
     public ResponseEntity<CategoryResponseRest> searchById(Long id);
     public ResponseEntity<CategoryResponseRest> save(Category category);
     public ResponseEntity<CategoryResponseRest> update(Category category, Long id);
-    public ResponseEntity<CategoryResponseRest> deleteById(Long id);
+    public ResponseEntity<CategoryResponseRest> deleteById(Long id, CategoryDeletePolicy policy, Long targetId);
 }
@@ -2,9 +2,13 @@ package com.anderson.cityshop.service.interfaces;
 
 import com.anderson.cityshop.model.Product;
 import com.anderson.cityshop.response.ProductResponseRest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
 
+import java.io.IOException;
+
 public interface IProductService{
     public ResponseEntity<ProductResponseRest> save(Product product, Long CategoryId);
     public ResponseEntity<ProductResponseRest> searchById(Long id);
+    public boolean writePictureById(Long id, HttpServletResponse response) throws IOException;
 }
@@ -1,48 +1,121 @@
 package com.anderson.cityshop.utils;
 
-import java.io.ByteArrayOutputStream;
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Dimension;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.util.zip.DataFormatException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 public class InventoryUtils {
 
-    public static byte[] compressZLib(byte[] data) {
-        Deflater deflater = new Deflater();
-        deflater.setInput(data);
-        deflater.finish();
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
-        byte[] buffer = new byte[1024];
-        while (!deflater.finished()) {
-            int count = deflater.deflate(buffer);
-            outputStream.write(buffer, 0, count);
-        }
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Compresses the given stream with zlib into a temporary file while computing its SHA-256 digest,
+     * reading the source only once through a fixed size buffer.
+     *
+     * @param data the stream holding the uncompressed bytes; it is not closed
+     * @return the temporary file with the compressed bytes together with the hex encoded hash
+     *         of the original content; closing it deletes the file
+     * @throws IOException if the stream cannot be read or the file cannot be written
+     */
+    public static CompressedData compressZLib(InputStream data) throws IOException {
+        MessageDigest digest;
         try {
-            outputStream.close();
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        Path file = Files.createTempFile("cityshop-picture-", ".zlib");
+        Deflater deflater = new Deflater();
+        try (DeflaterOutputStream deflaterStream =
+                     new DeflaterOutputStream(Files.newOutputStream(file), deflater, BUFFER_SIZE)) {
+            new DigestInputStream(data, digest).transferTo(deflaterStream);
         } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            deflater.end();
         }
-        System.out.println("Compressed Image Byte Size - " + outputStream.toByteArray().length);
 
-        return outputStream.toByteArray();
+        return new CompressedData(file, Files.size(file), HexFormat.of().formatHex(digest.digest()));
     }
 
-    // uncompress the image bytes before returning it to the angular application
-    public static byte[] decompressZLib(byte[] data) {
+    /**
+     * Uncompresses a zlib stream into the given output through a fixed size buffer,
+     * so the image is never held in memory as a whole.
+     *
+     * @param data the stream holding the compressed bytes; it is not closed
+     * @param output the destination of the uncompressed bytes; it is not closed
+     * @throws IOException if the stream cannot be read or is not valid zlib data
+     */
+    public static void decompressZLib(InputStream data, OutputStream output) throws IOException {
         Inflater inflater = new Inflater();
-        inflater.setInput(data);
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
-        byte[] buffer = new byte[1024];
         try {
-            while (!inflater.finished()) {
-                int count = inflater.inflate(buffer);
-                outputStream.write(buffer, 0, count);
+            new InflaterInputStream(data, inflater, BUFFER_SIZE).transferTo(output);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Reads the format and dimensions of an image from its header, without decoding the pixels.
+     * At most {@code maxHeaderBytes} are read, so padding segments placed before the dimensions
+     * cannot pull the whole upload into memory.
+     *
+     * @param data the stream holding the image; it is not closed
+     * @param maxHeaderBytes the maximum number of bytes read to find the dimensions
+     * @return the image header, or null if the content is not a readable image
+     *         or its dimensions are not found within the limit
+     * @throws IOException if the stream cannot be read
+     */
+    public static ImageHeader readImageHeader(InputStream data, int maxHeaderBytes) throws IOException {
+        byte[] header = data.readNBytes(maxHeaderBytes);
+        try (ImageInputStream imageStream = new MemoryCacheImageInputStream(new ByteArrayInputStream(header))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageStream, true, true);
+                return new ImageHeader(reader.getFormatName().toLowerCase(),
+                        new Dimension(reader.getWidth(0), reader.getHeight(0)));
+            } catch (IIOException | EOFException | IndexOutOfBoundsException e) {
+                // truncated or corrupt header
+                return null;
+            } finally {
+                reader.dispose();
             }
-            outputStream.close();
-        } catch (IOException ioe) {
-        } catch (DataFormatException e) {
         }
-        return outputStream.toByteArray();
+    }
+
+    public record CompressedData(Path file, long length, String sha256) implements AutoCloseable {
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    public record ImageHeader(String format, Dimension dimension) {
     }
 }
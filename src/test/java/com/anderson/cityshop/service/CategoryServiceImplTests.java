@@ -0,0 +1,211 @@
+package com.anderson.cityshop.service;
+
+import com.anderson.cityshop.dao.ICategoryDao;
+import com.anderson.cityshop.dao.IProductDao;
+import com.anderson.cityshop.model.Category;
+import com.anderson.cityshop.model.CategoryDeletePolicy;
+import com.anderson.cityshop.response.CategoryResponseRest;
+import com.anderson.cityshop.service.interfaces.ICategoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CategoryServiceImplTests {
+
+	private ICategoryDao categoryDao;
+	private IProductDao productDao;
+	private SimpleTransactionStatus transaction;
+	private ICategoryService categoryService;
+
+	@BeforeEach
+	void setUp() {
+		categoryDao = mock(ICategoryDao.class);
+		productDao = mock(IProductDao.class);
+
+		// run the service behind a transactional proxy so rollback-only marks can be asserted
+		transaction = new SimpleTransactionStatus();
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(transaction);
+
+		ProxyFactory proxyFactory = new ProxyFactory(new CategoryServiceImpl(categoryDao, productDao));
+		proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+		categoryService = (ICategoryService) proxyFactory.getProxy();
+	}
+
+	@Test
+	void updateReturnsOkWhenRowUpdated() {
+		when(categoryDao.updateById(1L, "name", "description")).thenReturn(1);
+
+		ResponseEntity<CategoryResponseRest> response = categoryService.update(category("name", "description"), 1L);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(1L, response.getBody().getCategoryResponse().getCategory().get(0).getId());
+		verify(categoryDao, never()).findById(anyLong());
+	}
+
+	@Test
+	void updateReturnsNotFoundWhenNoRowUpdated() {
+		when(categoryDao.updateById(1L, "name", "description")).thenReturn(0);
+
+		ResponseEntity<CategoryResponseRest> response = categoryService.update(category("name", "description"), 1L);
+
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+	}
+
+	@Test
+	void deleteRejectsCategoryInUse() {
+		lock(1L);
+		when(productDao.findIdsByCategoryId(1L)).thenReturn(List.of(10L, 11L));
+
+		ResponseEntity<CategoryResponseRest> response = categoryService.deleteById(1L, CategoryDeletePolicy.REJECT, null);
+
+		assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+		assertNull(response.getBody().getCategoryResponse().getAffectedProductIds());
+		verify(categoryDao, never()).bulkDeleteById(anyLong());
+	}
+
+	@Test
+	void deleteRejectPolicyDeletesEmptyCategory() {
+		lock(1L);
+		when(productDao.findIdsByCategoryId(1L)).thenReturn(List.of());
+		when(categoryDao.bulkDeleteById(1L)).thenReturn(1);
+
+		ResponseEntity<CategoryResponseRest> response = categoryService.deleteById(1L, CategoryDeletePolicy.REJECT, null);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertFalse(transaction.isRollbackOnly());
+	}
+
+	@Test
+	void deleteReassignWithoutTargetIsBadRequest() {
+		ResponseEntity<CategoryResponseRest> response = categoryService.deleteById(1L, CategoryDeletePolicy.REASSIGN, null);
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		verifyNoInteractions(categoryDao, productDao);
+	}
+
+	@Test
+	void deleteReassignToSameCategoryIsBadRequest() {
+		ResponseEntity<CategoryResponseRest> response = categoryService.deleteById(1L, CategoryDeletePolicy.REASSIGN, 1L);
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		verifyNoInteractions(categoryDao, productDao);
+	}
+
+	@Test
+	void deleteReassignToMissingCategoryIsBadRequest() {
+		lock(1L);
+		when(categoryDao.findByIdForUpdate(2L)).thenReturn(Optional.empty());
+
+		ResponseEntity<CategoryResponseRest> response = categoryService.deleteById(1L, CategoryDeletePolicy.REASSIGN, 2L);
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		verifyNoInteractions(productDao);
+	}
+
+	@Test
+	void deleteReassignMovesProductsAndReportsThem() {
+		lock(1L);
+		lock(2L);
+		when(productDao.findIdsByCategoryId(1L)).thenReturn(List.of(10L, 11L));
+		when(productDao.reassignCategory(1L, 2L)).thenReturn(2);
+		when(categoryDao.bulkDeleteById(1L)).thenReturn(1);
+
+		ResponseEntity<CategoryResponseRest> response = categoryService.deleteById(1L, CategoryDeletePolicy.REASSIGN, 2L);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(List.of(10L, 11L), response.getBody().getCategoryResponse().getAffectedProductIds());
+		assertFalse(transaction.isRollbackOnly());
+	}
+
+	@Test
+	void deleteReassignRowCountMismatchRollsBack() {
+		lock(1L);
+		lock(2L);
+		when(productDao.findIdsByCategoryId(1L)).thenReturn(List.of(10L, 11L));
+		when(productDao.reassignCategory(1L, 2L)).thenReturn(3);
+
+		ResponseEntity<CategoryResponseRest> response = categoryService.deleteById(1L, CategoryDeletePolicy.REASSIGN, 2L);
+
+		assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+		assertTrue(transaction.isRollbackOnly());
+		verify(categoryDao, never()).bulkDeleteById(anyLong());
+	}
+
+	@Test
+	void deleteCascadeUnlinksPicturesAndDeletesProducts() {
+		lock(1L);
+		when(productDao.findIdsByCategoryId(1L)).thenReturn(List.of(10L, 11L));
+		when(productDao.deleteByCategoryId(1L)).thenReturn(2);
+		when(categoryDao.bulkDeleteById(1L)).thenReturn(1);
+
+		ResponseEntity<CategoryResponseRest> response = categoryService.deleteById(1L, CategoryDeletePolicy.CASCADE, null);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals(List.of(10L, 11L), response.getBody().getCategoryResponse().getAffectedProductIds());
+		verify(productDao).unlinkPicturesByCategoryId(1L);
+	}
+
+	@Test
+	void deleteCascadeRowCountMismatchRollsBack() {
+		lock(1L);
+		when(productDao.findIdsByCategoryId(1L)).thenReturn(List.of(10L, 11L));
+		when(productDao.deleteByCategoryId(1L)).thenReturn(1);
+
+		ResponseEntity<CategoryResponseRest> response = categoryService.deleteById(1L, CategoryDeletePolicy.CASCADE, null);
+
+		assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+		assertTrue(transaction.isRollbackOnly());
+		verify(categoryDao, never()).bulkDeleteById(anyLong());
+	}
+
+	@Test
+	void deleteMissingCategoryIsNotFound() {
+		when(categoryDao.findByIdForUpdate(1L)).thenReturn(Optional.empty());
+
+		ResponseEntity<CategoryResponseRest> response = categoryService.deleteById(1L, CategoryDeletePolicy.CASCADE, null);
+
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+		verifyNoInteractions(productDao);
+	}
+
+	@Test
+	void deleteCategoryRowNotDeletedIsNotFoundAndRollsBack() {
+		lock(1L);
+		when(productDao.findIdsByCategoryId(1L)).thenReturn(List.of());
+		when(categoryDao.bulkDeleteById(1L)).thenReturn(0);
+
+		ResponseEntity<CategoryResponseRest> response = categoryService.deleteById(1L, CategoryDeletePolicy.CASCADE, null);
+
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+		assertTrue(transaction.isRollbackOnly());
+	}
+
+	private void lock(Long id) {
+		Category category = category("category " + id, null);
+		category.setId(id);
+		when(categoryDao.findByIdForUpdate(id)).thenReturn(Optional.of(category));
+	}
+
+	private static Category category(String name, String description) {
+		Category category = new Category();
+		category.setName(name);
+		category.setDescription(description);
+		return category;
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.anderson.cityshop.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryUtilsTests {
+
+	private static final int MAX_HEADER_BYTES = 64 * 1024;
+
+	@ParameterizedTest
+	@ValueSource(strings = {"jpeg", "png", "gif"})
+	void readImageHeaderReturnsFormatAndDimensions(String format) throws IOException {
+		InventoryUtils.ImageHeader header = InventoryUtils.readImageHeader(
+				new ByteArrayInputStream(image(format, 320, 200)), MAX_HEADER_BYTES);
+
+		assertNotNull(header);
+		assertEquals(format, header.format());
+		assertEquals(320, header.dimension().width);
+		assertEquals(200, header.dimension().height);
+	}
+
+	@Test
+	void readImageHeaderReturnsNullForNonImageBytes() throws IOException {
+		byte[] text = "this is not an image".getBytes(StandardCharsets.UTF_8);
+
+		assertNull(InventoryUtils.readImageHeader(new ByteArrayInputStream(text), MAX_HEADER_BYTES));
+	}
+
+	@Test
+	void readImageHeaderReturnsNullForTruncatedImage() throws IOException {
+		byte[] truncated = Arrays.copyOf(image("png", 320, 200), 12);
+
+		assertNull(InventoryUtils.readImageHeader(new ByteArrayInputStream(truncated), MAX_HEADER_BYTES));
+	}
+
+	@Test
+	void readImageHeaderReadsPaddedImageWithinLimit() throws IOException {
+		byte[] padded = paddedJpeg(10, 10, 16 * 1024);
+
+		InventoryUtils.ImageHeader header = InventoryUtils.readImageHeader(
+				new ByteArrayInputStream(padded), MAX_HEADER_BYTES);
+
+		assertNotNull(header);
+		assertEquals(10, header.dimension().width);
+		assertEquals(10, header.dimension().height);
+	}
+
+	@Test
+	void readImageHeaderStopsAtLimitForPaddedImage() throws IOException {
+		byte[] padded = paddedJpeg(10, 10, 20 * 1024 * 1024);
+		ByteArrayInputStream stream = new ByteArrayInputStream(padded);
+
+		assertNull(InventoryUtils.readImageHeader(stream, MAX_HEADER_BYTES));
+		assertEquals(MAX_HEADER_BYTES, padded.length - stream.available());
+	}
+
+	@Test
+	void compressZLibRoundTripsThroughDecompressZLib() throws Exception {
+		byte[] original = image("png", 320, 200);
+
+		try (InventoryUtils.CompressedData compressed =
+					 InventoryUtils.compressZLib(new ByteArrayInputStream(original))) {
+			assertEquals(Files.size(compressed.file()), compressed.length());
+			assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(original)),
+					compressed.sha256());
+
+			ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+			try (InputStream stream = Files.newInputStream(compressed.file())) {
+				InventoryUtils.decompressZLib(stream, decompressed);
+			}
+			assertArrayEquals(original, decompressed.toByteArray());
+
+			compressed.close();
+			assertFalse(Files.exists(compressed.file()));
+		}
+	}
+
+	private static byte[] image(String format, int width, int height) throws IOException {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ImageIO.write(image, format, output);
+		return output.toByteArray();
+	}
+
+	/**
+	 * Builds a jpeg with comment segments totalling {@code padding} bytes placed before the frame header.
+	 */
+	private static byte[] paddedJpeg(int width, int height, int padding) throws IOException {
+		byte[] jpeg = image("jpeg", width, height);
+		ByteArrayOutputStream output = new ByteArrayOutputStream(jpeg.length + padding + 1024);
+		output.write(jpeg, 0, 2); // SOI
+		byte[] comment = new byte[65533];
+		for (int remaining = padding; remaining > 0; remaining -= comment.length) {
+			int length = Math.min(comment.length, remaining) + 2;
+			output.write(0xFF);
+			output.write(0xFE);
+			output.write(length >> 8);
+			output.write(length & 0xFF);
+			output.write(comment, 0, length - 2);
+		}
+		output.write(jpeg, 2, jpeg.length - 2);
+		return output.toByteArray();
+	}
+
+}